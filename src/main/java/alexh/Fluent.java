@@ -16,7 +16,21 @@
 package alexh;
 
 import static java.util.Collections.unmodifiableMap;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.ToIntFunction;
 
 /**
  * Container for fluent class implementation that allows declarative object building style.
@@ -31,6 +45,12 @@ import java.util.Comparator;
  */
 public class Fluent {
 
+    /** Maximum open-addressing table capacity */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /** Shared {@link HashingStrategy#byteArray()}, identifying maps that support byte[] range lookups */
+    private static final HashingStrategy<byte[]> BYTE_ARRAY_STRATEGY = HashingStrategy.of(Arrays::hashCode, Arrays::equals);
+
     /** Fluent extension of java.util.Map */
     public interface Map<K, V> extends java.util.Map<K, V> {
 
@@ -171,5 +191,1000 @@ public class Fluent {
         }
     }
 
+    /**
+     * Defines key hashing & equality for a {@link StrategyHashMap}, allowing keys such as arrays or case-insensitive
+     * strings to be used directly without wrapping them in key objects
+     */
+    public interface HashingStrategy<T> {
+
+        /**
+         * @param object non-null key
+         * @return hash code of the key, consistent with {@link #equals(Object, Object)}
+         */
+        int hash(T object);
+
+        /**
+         * @param a non-null key
+         * @param b non-null key
+         * @return true if the keys should be considered equal
+         */
+        boolean equals(T a, T b);
+
+        /**
+         * @param hash key hash function
+         * @param equals key equality predicate
+         * @return strategy using the input functions
+         */
+        static <T> HashingStrategy<T> of(ToIntFunction<? super T> hash, BiPredicate<? super T, ? super T> equals) {
+            Objects.requireNonNull(hash);
+            Objects.requireNonNull(equals);
+            return new HashingStrategy<T>() {
+                @Override
+                public int hash(T object) {
+                    return hash.applyAsInt(object);
+                }
+
+                @Override
+                public boolean equals(T a, T b) {
+                    return equals.test(a, b);
+                }
+            };
+        }
+
+        /**
+         * @return strategy comparing byte[] keys by content, also supporting allocation-free lookups of array ranges
+         * with {@link StrategyHashMap#get(byte[], int, int)}
+         */
+        static HashingStrategy<byte[]> byteArray() {
+            return BYTE_ARRAY_STRATEGY;
+        }
+
+        /** @return strategy comparing char[] keys by content */
+        static HashingStrategy<char[]> charArray() {
+            return of(Arrays::hashCode, Arrays::equals);
+        }
+
+        /** @return strategy comparing int[] keys by content */
+        static HashingStrategy<int[]> intArray() {
+            return of(Arrays::hashCode, Arrays::equals);
+        }
+
+        /** @return strategy comparing long[] keys by content */
+        static HashingStrategy<long[]> longArray() {
+            return of(Arrays::hashCode, Arrays::equals);
+        }
+
+        /** @return strategy comparing Object[] keys by content, see java.util.Arrays#equals(Object[], Object[]) */
+        static HashingStrategy<Object[]> objectArray() {
+            return of(Arrays::hashCode, Arrays::equals);
+        }
+
+        /** @return strategy comparing String keys ignoring case, see String#equalsIgnoreCase(String) */
+        static HashingStrategy<String> caseInsensitive() {
+            return of(string -> {
+                int hash = 0;
+                for (int i = 0; i < string.length(); ) {
+                    int codePoint = string.codePointAt(i);
+                    hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(codePoint));
+                    i += Character.charCount(codePoint);
+                }
+                return hash;
+            }, String::equalsIgnoreCase);
+        }
+    }
+
+    /**
+     * Linear probing open-addressing map shared by {@link StrategyHashMap} & {@link StringTableMap}. Tracks slot
+     * hashes, occupancy, deletion & iteration while subclasses store each slot's entry in their table of type T and
+     * define key matching. Deleted slots are reused by inserts and cleared on rehash, or once followed by an empty slot
+     */
+    abstract static class OpenHashMap<K, V, T> extends AbstractMap<K, V> implements Fluent.Map<K, V> {
+
+        private final float loadFactor;
+
+        /** slot storage, each slot is empty, deleted or holds an entry */
+        T table;
+        private int[] hashes;
+        /** number of live entries */
+        private int size;
+        /** number of live & deleted slots */
+        private int used;
+        private int threshold;
+        private int modCount;
+        private Set<Entry<K, V>> entrySet;
+        private Set<K> keySet;
+        private Collection<V> values;
+        /** power of two limit on slots, as a table may need more than one array element per slot */
+        private final int maximumCapacity;
+
+        OpenHashMap(int initialCapacity, float loadFactor, int maximumCapacity) {
+            if (initialCapacity < 0)
+                throw new IllegalArgumentException("Illegal initial capacity: " + initialCapacity);
+            if (!(loadFactor > 0 && loadFactor < 1))
+                throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+            this.loadFactor = loadFactor;
+            this.maximumCapacity = maximumCapacity;
+            allocate(Math.min(tableSizeFor((int) Math.min(MAXIMUM_CAPACITY, initialCapacity / loadFactor + 1)), maximumCapacity));
+        }
+
+        /** @return new table of empty slots, called during construction so must not depend on subclass state */
+        abstract T newTable(int capacity);
+
+        abstract boolean isEmpty(T table, int slot);
+
+        abstract boolean isDeleted(T table, int slot);
+
+        /** Marks the deleted slot empty */
+        abstract void clearSlot(int slot);
+
+        /** Marks the live slot deleted, releasing its entry */
+        abstract void deleteSlot(int slot);
+
+        /** Moves the entry of the slot in the old table to the empty slot of the current table */
+        abstract void moveSlot(T from, int fromSlot, int toSlot);
+
+        abstract K keyAt(int slot);
+
+        abstract V valueAt(int slot);
+
+        /** Stores a new entry in the empty or deleted slot */
+        abstract void setEntry(int slot, K key, V value);
+
+        /** Replaces the value of the live slot matching the key */
+        abstract void replaceValue(int slot, K key, V value);
+
+        /**
+         * @param lookup lookup key, or array containing the key when length is non-negative
+         * @param offset index of the key in a lookup array
+         * @param length length of the key in a lookup array, or -1 for whole key lookups
+         * @return true if the live slot's key matches the lookup
+         */
+        abstract boolean matches(int slot, Object lookup, int offset, int length);
+
+        /** @return slot of the key, or -1 if not present or not a possible key */
+        abstract int indexOf(Object key);
+
+        private void allocate(int capacity) {
+            table = newTable(capacity);
+            hashes = new int[capacity];
+            threshold = Math.min((int) (capacity * loadFactor), capacity - 1);
+            used = size;
+        }
+
+        private boolean isLive(int slot) {
+            return !isEmpty(table, slot) && !isDeleted(table, slot);
+        }
+
+        /** @return slot matching the lookup, or -1 */
+        final int find(int hash, Object lookup, int offset, int length) {
+            final T table = this.table;
+            final int[] hashes = this.hashes;
+            final int mask = hashes.length - 1;
+            for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+                if (isEmpty(table, i)) return -1;
+                if (hashes[i] == hash && !isDeleted(table, i) && matches(i, lookup, offset, length)) return i;
+            }
+        }
+
+        final int find(int hash, Object key) {
+            return find(hash, key, 0, -1);
+        }
+
+        /** @return the replaced value if present and returnOld, otherwise null */
+        final V putEntry(K key, int hash, V value, boolean returnOld) {
+            final int mask = hashes.length - 1;
+            int free = -1;
+            int i = spread(hash) & mask;
+            for (; !isEmpty(table, i); i = (i + 1) & mask) {
+                if (isDeleted(table, i)) {
+                    if (free < 0) free = i;
+                }
+                else if (hashes[i] == hash && matches(i, key, 0, -1)) {
+                    V old = returnOld ? valueAt(i) : null;
+                    replaceValue(i, key, value);
+                    return old;
+                }
+            }
+            if (size >= threshold && hashes.length == maximumCapacity)
+                throw new IllegalStateException("Map capacity exceeded");
+            if (free < 0) {
+                free = i;
+                used++;
+            }
+            setEntry(free, key, value);
+            hashes[free] = hash;
+            size++;
+            modCount++;
+            if (used > threshold) {
+                // grow when mostly live entries, otherwise just clear out deleted slots
+                rehash(size >= threshold >>> 1 ? Math.min(hashes.length << 1, maximumCapacity) : hashes.length);
+            }
+            return null;
+        }
+
+        private void rehash(int capacity) {
+            final T old = table;
+            final int[] oldHashes = hashes;
+            allocate(capacity);
+            final int mask = capacity - 1;
+            for (int j = 0; j < oldHashes.length; j++) {
+                if (isEmpty(old, j) || isDeleted(old, j)) continue;
+                int i = spread(oldHashes[j]) & mask;
+                while (!isEmpty(table, i)) i = (i + 1) & mask;
+                moveSlot(old, j, i);
+                hashes[i] = oldHashes[j];
+            }
+        }
+
+        final void removeAt(int slot) {
+            final int mask = hashes.length - 1;
+            deleteSlot(slot);
+            size--;
+            modCount++;
+            // a deleted run followed by an empty slot ends no probe sequence, so can be emptied
+            if (isEmpty(table, (slot + 1) & mask)) {
+                for (int i = slot; isDeleted(table, i); i = (i - 1) & mask) {
+                    clearSlot(i);
+                    used--;
+                }
+            }
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOf(key) >= 0;
+        }
+
+        @Override
+        public V get(Object key) {
+            int i = indexOf(key);
+            return i < 0 ? null : valueAt(i);
+        }
+
+        @Override
+        public V remove(Object key) {
+            int i = indexOf(key);
+            if (i < 0) return null;
+            V old = valueAt(i);
+            removeAt(i);
+            return old;
+        }
+
+        @Override
+        public void clear() {
+            if (used == 0) return;
+            table = newTable(hashes.length);
+            size = 0;
+            used = 0;
+            modCount++;
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super K, ? super V> action) {
+            final int expectedModCount = modCount;
+            for (int i = 0; i < hashes.length; i++) {
+                if (isLive(i)) action.accept(keyAt(i), valueAt(i));
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            if (entrySet == null) entrySet = new EntrySet();
+            return entrySet;
+        }
+
+        @Override
+        public Set<K> keySet() {
+            if (keySet == null) keySet = new KeySet();
+            return keySet;
+        }
+
+        @Override
+        public Collection<V> values() {
+            if (values == null) values = new Values();
+            return values;
+        }
+
+        private final class EntrySet extends AbstractSet<Entry<K, V>> {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new SlotIterator<Entry<K, V>>() {
+                    @Override
+                    Entry<K, V> at(int slot) {
+                        return new SlotEntry(slot);
+                    }
+
+                    @Override
+                    void beforeRemove(Entry<K, V> entry) {
+                        // removal clears the slot, so the entry must hold its value beforehand
+                        entry.getValue();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Entry)) return false;
+                Entry<?, ?> entry = (Entry<?, ?>) o;
+                int i = indexOf(entry.getKey());
+                return i >= 0 && Objects.equals(valueAt(i), entry.getValue());
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                if (!(o instanceof Entry)) return false;
+                Entry<?, ?> entry = (Entry<?, ?>) o;
+                int i = indexOf(entry.getKey());
+                if (i < 0 || !Objects.equals(valueAt(i), entry.getValue())) return false;
+                removeAt(i);
+                return true;
+            }
+
+            @Override
+            public void clear() {
+                OpenHashMap.this.clear();
+            }
+        }
+
+        private final class KeySet extends AbstractSet<K> {
+            @Override
+            public Iterator<K> iterator() {
+                return new SlotIterator<K>() {
+                    @Override
+                    K at(int slot) {
+                        return keyAt(slot);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return indexOf(o) >= 0;
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                int i = indexOf(o);
+                if (i < 0) return false;
+                removeAt(i);
+                return true;
+            }
+
+            @Override
+            public void clear() {
+                OpenHashMap.this.clear();
+            }
+        }
+
+        private final class Values extends AbstractCollection<V> {
+            @Override
+            public Iterator<V> iterator() {
+                return new SlotIterator<V>() {
+                    @Override
+                    V at(int slot) {
+                        return valueAt(slot);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void clear() {
+                OpenHashMap.this.clear();
+            }
+        }
+
+        /** Iterates live slots, decoding only what {@link #at(int)} asks for */
+        private abstract class SlotIterator<E> implements Iterator<E> {
+            private int next = -1;
+            private int last = -1;
+            private E lastElement;
+            private int expectedModCount = modCount;
+
+            SlotIterator() {
+                advance();
+            }
+
+            abstract E at(int slot);
+
+            void beforeRemove(E element) {}
+
+            private void advance() {
+                do next++;
+                while (next < hashes.length && !isLive(next));
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next < hashes.length;
+            }
+
+            @Override
+            public E next() {
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+                if (!hasNext()) throw new NoSuchElementException();
+                last = next;
+                advance();
+                return lastElement = at(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) throw new IllegalStateException();
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+                beforeRemove(lastElement);
+                removeAt(last);
+                last = -1;
+                lastElement = null;
+                expectedModCount = modCount;
+            }
+        }
+
+        /**
+         * Entry of a slot's key, decoding the value on first use. Value changes write through to the map while the key
+         * remains present
+         */
+        private final class SlotEntry implements Entry<K, V> {
+            private final K key;
+            private final int slot;
+            /** map modCount when created, while unchanged the slot still holds this entry */
+            private final int slotModCount = modCount;
+            private boolean loaded;
+            private V value;
+
+            SlotEntry(int slot) {
+                this.key = keyAt(slot);
+                this.slot = slot;
+            }
+
+            @Override
+            public K getKey() {
+                return key;
+            }
+
+            @Override
+            public V getValue() {
+                if (!loaded) {
+                    value = modCount == slotModCount ? valueAt(slot) : get(key);
+                    loaded = true;
+                }
+                return value;
+            }
+
+            @Override
+            public V setValue(V value) {
+                V old = getValue();
+                if (containsKey(key)) put(key, value);
+                this.value = value;
+                return old;
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                if (!(o instanceof Entry)) return false;
+                Entry<?, ?> entry = (Entry<?, ?>) o;
+                return Objects.equals(key, entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+            }
+
+            @Override
+            public int hashCode() {
+                return Objects.hashCode(key) ^ Objects.hashCode(getValue());
+            }
+
+            @Override
+            public String toString() {
+                return key + "=" + getValue();
+            }
+        }
+    }
+
+    /**
+     * Fluent open-addressing hash map using a {@link HashingStrategy} for key hashing & equality instead of the keys'
+     * own hashCode & equals. Null keys are not permitted, null values are.
+     * Usage:
+     * <pre>{@code
+     *  Map<String, Integer> map = new Fluent.StrategyHashMap<String, Integer>(Fluent.HashingStrategy.caseInsensitive())
+     *      .append("Content-Length", 123);
+     *  map.get("content-length"); // 123
+     * }</pre>
+     * As with java.util.IdentityHashMap this class intentionally violates the general Map contract, which mandates
+     * the use of the equals method when comparing keys
+     */
+    public static class StrategyHashMap<K, V> extends OpenHashMap<K, V, Object[]> {
+
+        private static final Object DELETED = new Object();
+
+        private final HashingStrategy<? super K> strategy;
+
+        public StrategyHashMap(HashingStrategy<? super K> strategy, int initialCapacity, float loadFactor) {
+            // interleaved table needs 2 array elements per slot
+            super(initialCapacity, loadFactor, MAXIMUM_CAPACITY >>> 1);
+            this.strategy = Objects.requireNonNull(strategy);
+        }
+        public StrategyHashMap(HashingStrategy<? super K> strategy, int initialCapacity) {
+            this(strategy, initialCapacity, 0.5f);
+        }
+        public StrategyHashMap(HashingStrategy<? super K> strategy, java.util.Map<? extends K, ? extends V> m) {
+            this(strategy, m.size());
+            putAll(m);
+        }
+        public StrategyHashMap(HashingStrategy<? super K> strategy) {
+            this(strategy, 8);
+        }
+
+        /** @return table of interleaved keys & values, a null key marks an empty slot */
+        @Override
+        Object[] newTable(int capacity) {
+            return new Object[capacity << 1];
+        }
+
+        @Override
+        boolean isEmpty(Object[] table, int slot) {
+            return table[slot << 1] == null;
+        }
+
+        @Override
+        boolean isDeleted(Object[] table, int slot) {
+            return table[slot << 1] == DELETED;
+        }
+
+        @Override
+        void clearSlot(int slot) {
+            table[slot << 1] = null;
+        }
+
+        @Override
+        void deleteSlot(int slot) {
+            table[slot << 1] = DELETED;
+            table[(slot << 1) + 1] = null;
+        }
+
+        @Override
+        void moveSlot(Object[] from, int fromSlot, int toSlot) {
+            table[toSlot << 1] = from[fromSlot << 1];
+            table[(toSlot << 1) + 1] = from[(fromSlot << 1) + 1];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        K keyAt(int slot) {
+            return (K) table[slot << 1];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        V valueAt(int slot) {
+            return (V) table[(slot << 1) + 1];
+        }
+
+        @Override
+        void setEntry(int slot, K key, V value) {
+            table[slot << 1] = key;
+            table[(slot << 1) + 1] = value;
+        }
+
+        @Override
+        void replaceValue(int slot, K key, V value) {
+            table[(slot << 1) + 1] = value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        boolean matches(int slot, Object lookup, int offset, int length) {
+            Object key = table[slot << 1];
+            if (length < 0) return key == lookup || strategy.equals((K) key, (K) lookup);
+            return rangeEquals((byte[]) key, (byte[]) lookup, offset, length);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        int indexOf(Object key) {
+            return key == null ? -1 : find(strategy.hash((K) key), key);
+        }
+
+        @Override
+        public V put(K key, V value) {
+            if (key == null) throw new NullPointerException("Null keys are not permitted");
+            return putEntry(key, strategy.hash(key), value, true);
+        }
+
+        /**
+         * Returns the value of the byte[] key equal to the input array range, without copying the range into a new key.
+         * Requires a map using {@link HashingStrategy#byteArray()}
+         * @param buf array containing the key bytes
+         * @param offset index of the first key byte
+         * @param length number of key bytes
+         * @return value of the key, or null if not present
+         * @throws IllegalStateException if the map does not use {@link HashingStrategy#byteArray()}
+         */
+        public V get(byte[] buf, int offset, int length) {
+            if (strategy != BYTE_ARRAY_STRATEGY)
+                throw new IllegalStateException("Range lookups require HashingStrategy.byteArray()");
+            if (offset < 0 || length < 0 || offset > buf.length - length)
+                throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", buf " + buf.length);
+            final int end = offset + length;
+            int hash = 1; // as java.util.Arrays#hashCode(byte[])
+            for (int j = offset; j < end; j++) hash = 31 * hash + buf[j];
+            int i = find(hash, buf, offset, length);
+            return i < 0 ? null : valueAt(i);
+        }
+
+        private static boolean rangeEquals(byte[] key, byte[] buf, int offset, int length) {
+            if (key.length != length) return false;
+            for (int j = 0; j < length; j++) {
+                if (key[j] != buf[offset + j]) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Fluent String -> String map storing all keys & values encoded in a single byte array arena, indexed by an
+     * open-addressing table of arena offsets. Large tables, such as headers or i18n bundles, take a fraction of the
+     * heap of a HashMap as no String, byte[] or node objects are retained per entry.
+     * Keys are compared against the arena without materializing Strings, values are decoded on each get.
+     * Usage:
+     * <pre>{@code
+     *  java.util.Map<String, String> bundle = new Fluent.StringTableMap()
+     *      .append("greeting", "hello")
+     *      .append("farewell", "goodbye")
+     *      .unmodifiable();
+     * }</pre>
+     * Text is encoded as UTF-8, unpaired surrogates are encoded as 3 byte sequences (as WTF-8) so any String
+     * round trips exactly. Null keys & values are not permitted.
+     * Replaced & removed entries leave garbage in the arena, compacted once it exceeds half the arena,
+     * {@link #unmodifiable()} also trims the arena to size
+     */
+    public static class StringTableMap extends OpenHashMap<String, String, int[]> {
+
+        private static final int EMPTY = 0;
+        private static final int DELETED = -1;
+        private static final int MAXIMUM_ARENA = Integer.MAX_VALUE - 8;
+
+        /** entries of [key length varint][key bytes][value length varint][value bytes] */
+        private byte[] arena;
+        private int arenaSize;
+        /** arena bytes no longer referenced by a slot */
+        private int garbage;
+
+        public StringTableMap(int initialCapacity, float loadFactor) {
+            super(initialCapacity, loadFactor, MAXIMUM_CAPACITY);
+            this.arena = new byte[(int) Math.min(MAXIMUM_ARENA, Math.max(16, initialCapacity * 16L))];
+        }
+        public StringTableMap(int initialCapacity) {
+            this(initialCapacity, 0.5f);
+        }
+        public StringTableMap(java.util.Map<String, String> m) {
+            this(m.size());
+            putAll(m);
+        }
+        public StringTableMap() {
+            this(8);
+        }
+
+        /** @return table of arena offset + 1 of each slot's entry, or EMPTY / DELETED */
+        @Override
+        int[] newTable(int capacity) {
+            return new int[capacity];
+        }
+
+        @Override
+        boolean isEmpty(int[] table, int slot) {
+            return table[slot] == EMPTY;
+        }
+
+        @Override
+        boolean isDeleted(int[] table, int slot) {
+            return table[slot] == DELETED;
+        }
+
+        @Override
+        void clearSlot(int slot) {
+            table[slot] = EMPTY;
+        }
+
+        @Override
+        void deleteSlot(int slot) {
+            garbage += entryLength(arena, table[slot] - 1);
+            table[slot] = DELETED;
+            compactIfWasteful();
+        }
+
+        @Override
+        void moveSlot(int[] from, int fromSlot, int toSlot) {
+            table[toSlot] = from[fromSlot];
+        }
+
+        @Override
+        String keyAt(int slot) {
+            int offset = table[slot] - 1;
+            int length = readVarint(arena, offset);
+            return decode(offset + varintLength(length), length);
+        }
+
+        @Override
+        String valueAt(int slot) {
+            int offset = table[slot] - 1;
+            int keyLength = readVarint(arena, offset);
+            int pos = offset + varintLength(keyLength) + keyLength;
+            int length = readVarint(arena, pos);
+            return decode(pos + varintLength(length), length);
+        }
+
+        @Override
+        void setEntry(int slot, String key, String value) {
+            table[slot] = write(key, value) + 1;
+        }
+
+        @Override
+        void replaceValue(int slot, String key, String value) {
+            garbage += entryLength(arena, table[slot] - 1);
+            table[slot] = write(key, value) + 1;
+            compactIfWasteful();
+        }
+
+        @Override
+        boolean matches(int slot, Object lookup, int offset, int length) {
+            return keyEquals(table[slot] - 1, (String) lookup);
+        }
+
+        @Override
+        int indexOf(Object key) {
+            return key instanceof String ? find(key.hashCode(), key) : -1;
+        }
+
+        @Override
+        public String put(String key, String value) {
+            if (key == null || value == null) throw new NullPointerException("Null keys & values are not permitted");
+            return putEntry(key, key.hashCode(), value, true);
+        }
+
+        @Override
+        public Fluent.Map<String, String> append(String key, String val) {
+            if (key == null || val == null) throw new NullPointerException("Null keys & values are not permitted");
+            putEntry(key, key.hashCode(), val, false);
+            return this;
+        }
+
+        @Override
+        public void putAll(java.util.Map<? extends String, ? extends String> m) {
+            for (Entry<? extends String, ? extends String> entry : m.entrySet()) {
+                append(entry.getKey(), entry.getValue());
+            }
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            arenaSize = 0;
+            garbage = 0;
+        }
+
+        /**
+         * Returns an unmodifiable view of this map, first trimming the arena to the size of the live entries.
+         * @see Fluent.Map#unmodifiable()
+         * @return an unmodifiable view of this map
+         */
+        @Override
+        public java.util.Map<String, String> unmodifiable() {
+            compact(arenaSize - garbage);
+            return unmodifiableMap(this);
+        }
+
+        private void compactIfWasteful() {
+            if (garbage > arenaSize >>> 1) {
+                int live = arenaSize - garbage;
+                compact(Math.max(16, live + (live >>> 1)));
+            }
+        }
+
+        /** Copies live entries into a new arena of the input capacity, dropping garbage */
+        private void compact(int capacity) {
+            final byte[] old = arena;
+            final int[] table = this.table;
+            arena = new byte[capacity];
+            arenaSize = 0;
+            garbage = 0;
+            for (int i = 0; i < table.length; i++) {
+                int slot = table[i];
+                if (slot == EMPTY || slot == DELETED) continue;
+                int length = entryLength(old, slot - 1);
+                System.arraycopy(old, slot - 1, arena, arenaSize, length);
+                table[i] = arenaSize + 1;
+                arenaSize += length;
+            }
+        }
+
+        /** @return arena offset of the newly written entry */
+        private int write(String key, String value) {
+            final int keyLength = encodedLength(key);
+            final int valueLength = encodedLength(value);
+            final int length = varintLength(keyLength) + keyLength + varintLength(valueLength) + valueLength;
+            if (arena.length - arenaSize < length) {
+                long capacity = Math.max((long) arena.length * 2, (long) arenaSize + length);
+                if (capacity > MAXIMUM_ARENA) {
+                    if ((long) arenaSize + length > MAXIMUM_ARENA)
+                        throw new IllegalStateException("String table arena capacity exceeded");
+                    capacity = MAXIMUM_ARENA;
+                }
+                arena = Arrays.copyOf(arena, (int) capacity);
+            }
+            final int offset = arenaSize;
+            int pos = writeVarint(offset, keyLength);
+            pos = encode(key, pos);
+            pos = writeVarint(pos, valueLength);
+            arenaSize = encode(value, pos);
+            return offset;
+        }
+
+        private static int entryLength(byte[] arena, int offset) {
+            int keyLength = readVarint(arena, offset);
+            int pos = offset + varintLength(keyLength) + keyLength;
+            int valueLength = readVarint(arena, pos);
+            return pos + varintLength(valueLength) + valueLength - offset;
+        }
+
+        private static int varintLength(int value) {
+            return value < 0x80 ? 1 : value < 0x4000 ? 2 : value < 0x200000 ? 3 : value < 0x10000000 ? 4 : 5;
+        }
+
+        private int writeVarint(int pos, int value) {
+            while (value >= 0x80) {
+                arena[pos++] = (byte) (value | 0x80);
+                value >>>= 7;
+            }
+            arena[pos++] = (byte) value;
+            return pos;
+        }
+
+        private static int readVarint(byte[] arena, int pos) {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = arena[pos++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+        }
+
+        private static boolean isSurrogatePair(String s, int i) {
+            return Character.isHighSurrogate(s.charAt(i)) && i + 1 < s.length()
+                && Character.isLowSurrogate(s.charAt(i + 1));
+        }
+
+        private static int encodedLength(String s) {
+            int length = s.length();
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c >= 0x80) {
+                    if (c < 0x800) length += 1;
+                    else if (isSurrogatePair(s, i)) {
+                        length += 2;
+                        i++;
+                    }
+                    else length += 2;
+                }
+            }
+            return length;
+        }
+
+        private int encode(String s, int pos) {
+            final byte[] arena = this.arena;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) arena[pos++] = (byte) c;
+                else if (c < 0x800) {
+                    arena[pos++] = (byte) (0xC0 | c >> 6);
+                    arena[pos++] = (byte) (0x80 | c & 0x3F);
+                }
+                else if (isSurrogatePair(s, i)) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    arena[pos++] = (byte) (0xF0 | cp >> 18);
+                    arena[pos++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                    arena[pos++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                    arena[pos++] = (byte) (0x80 | cp & 0x3F);
+                }
+                else {
+                    arena[pos++] = (byte) (0xE0 | c >> 12);
+                    arena[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    arena[pos++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+            return pos;
+        }
+
+        private String decode(int pos, int length) {
+            final byte[] arena = this.arena;
+            final int end = pos + length;
+            int ascii = pos;
+            while (ascii < end && arena[ascii] >= 0) ascii++;
+            if (ascii == end) return new String(arena, pos, length, StandardCharsets.ISO_8859_1);
+
+            final char[] chars = new char[length];
+            int n = 0;
+            while (pos < end) {
+                int b = arena[pos++];
+                if (b >= 0) chars[n++] = (char) b;
+                else if ((b & 0xE0) == 0xC0) chars[n++] = (char) ((b & 0x1F) << 6 | arena[pos++] & 0x3F);
+                else if ((b & 0xF0) == 0xE0) {
+                    chars[n++] = (char) ((b & 0x0F) << 12 | (arena[pos++] & 0x3F) << 6 | arena[pos++] & 0x3F);
+                }
+                else {
+                    int cp = (b & 0x07) << 18 | (arena[pos++] & 0x3F) << 12 | (arena[pos++] & 0x3F) << 6 | arena[pos++] & 0x3F;
+                    chars[n++] = Character.highSurrogate(cp);
+                    chars[n++] = Character.lowSurrogate(cp);
+                }
+            }
+            return new String(chars, 0, n);
+        }
+
+        /** @return true if the arena key at the offset encodes the input key, compared without decoding */
+        private boolean keyEquals(int offset, String key) {
+            final byte[] arena = this.arena;
+            final int length = readVarint(arena, offset);
+            if (length < key.length() || length > key.length() * 3) return false;
+            int pos = offset + varintLength(length);
+            final int end = pos + length;
+            for (int i = 0; i < key.length(); i++) {
+                if (pos >= end) return false;
+                char c = key.charAt(i);
+                if (c < 0x80) {
+                    if (arena[pos++] != c) return false;
+                }
+                else if (c < 0x800) {
+                    if (end - pos < 2
+                        || arena[pos++] != (byte) (0xC0 | c >> 6)
+                        || arena[pos++] != (byte) (0x80 | c & 0x3F)) return false;
+                }
+                else if (isSurrogatePair(key, i)) {
+                    int cp = Character.toCodePoint(c, key.charAt(++i));
+                    if (end - pos < 4
+                        || arena[pos++] != (byte) (0xF0 | cp >> 18)
+                        || arena[pos++] != (byte) (0x80 | cp >> 12 & 0x3F)
+                        || arena[pos++] != (byte) (0x80 | cp >> 6 & 0x3F)
+                        || arena[pos++] != (byte) (0x80 | cp & 0x3F)) return false;
+                }
+                else {
+                    if (end - pos < 3
+                        || arena[pos++] != (byte) (0xE0 | c >> 12)
+                        || arena[pos++] != (byte) (0x80 | c >> 6 & 0x3F)
+                        || arena[pos++] != (byte) (0x80 | c & 0x3F)) return false;
+                }
+            }
+            return pos == end;
+        }
+    }
+
+    /** @return power of two table capacity of at least the input */
+    private static int tableSizeFor(int capacity) {
+        int n = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        return Math.min(n, MAXIMUM_CAPACITY);
+    }
+
+    /** @return hash mixed so the low bits suit linear probing */
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
     private Fluent() {}
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2015 Alex Butler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package alexh;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs {@link Unchecker#uncheckedForkAll(List, java.util.function.Function)} work on a shared pool of daemon threads.
+ * Replaced on Java 21+ by the multi-release version in src/main/java21
+ */
+final class Forker {
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "fluent-fork");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static <T> List<T> forkAll(List<? extends Unchecker.ThrowingSupplier<? extends T>> suppliers) throws Throwable {
+        return Unchecker.joinAll(EXECUTOR, suppliers);
+    }
+
+    private Forker() {}
+}
@@ -15,6 +15,13 @@
  */
 package alexh;
 
+import static java.util.Collections.emptyMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.function.*;
 
 /**
@@ -106,6 +113,23 @@ public class Unchecker {
         return (T t, U u) -> unchecked(() -> consumer.accept(t, u), exTransformer);
     }
 
+    /**
+     * Runs the suppliers concurrently returning their results, in order, once all have completed. If any supplier
+     * throws the others are cancelled and the first failure is thrown, wrapping checked exceptions using the input
+     * exception transformer.
+     * On every runtime no forked work outlives the call: cancelled suppliers that have started are interrupted and
+     * waited for, even if they ignore the interrupt, and those yet to start never run.
+     * On Java 21+ each supplier runs on a new virtual thread, on earlier runtimes suppliers run on a shared pool of
+     * daemon threads
+     * @param suppliers suppliers that can throw a checked exception
+     * @param exTransformer checked -> unchecked exception transformer
+     * @param <T> Supplier / result type
+     * @return Supplier results
+     */
+    public static <T> List<T> uncheckedForkAll(List<? extends ThrowingSupplier<? extends T>> suppliers, Function<Throwable, ? extends RuntimeException> exTransformer) {
+        return uncheckedGet(() -> Forker.forkAll(suppliers), exTransformer);
+    }
+
     /**
      * As {@link Unchecker#uncheck(alexh.Unchecker.ThrowingSupplier, java.util.function.Function)}
      * wrapping checked exceptions in {@link RuntimeException}s
@@ -170,6 +194,184 @@ public class Unchecker {
         return uncheck(consumer, DEFAULT_EXCEPTION_TRANSFORMER);
     }
 
+    /**
+     * As {@link Unchecker#uncheckedForkAll(java.util.List, java.util.function.Function)}
+     * wrapping checked exceptions in {@link RuntimeException}s
+     */
+    public static <T> List<T> uncheckedForkAll(List<? extends ThrowingSupplier<? extends T>> suppliers) {
+        return uncheckedForkAll(suppliers, DEFAULT_EXCEPTION_TRANSFORMER);
+    }
+
+    /**
+     * As {@link Unchecker#uncheckedForkAll(java.util.List, java.util.function.Function)}
+     * wrapping checked exceptions in {@link RuntimeException}s
+     */
+    @SafeVarargs
+    public static <T> List<T> uncheckedForkAll(ThrowingSupplier<? extends T>... suppliers) {
+        List<ThrowingSupplier<? extends T>> list = new ArrayList<>(suppliers.length);
+        for (ThrowingSupplier<? extends T> supplier : suppliers) list.add(supplier);
+        return uncheckedForkAll(list, DEFAULT_EXCEPTION_TRANSFORMER);
+    }
+
+    /**
+     * Submits the suppliers to the executor and waits for all to complete, cancelling the rest on the first failure.
+     * Returns only once every supplier has finished or been prevented from starting
+     * @return Supplier results, in order
+     * @throws Throwable the first failure thrown by a supplier
+     */
+    static <T> List<T> joinAll(ExecutorService executor, List<? extends ThrowingSupplier<? extends T>> suppliers) throws Throwable {
+        final List<? extends ThrowingSupplier<? extends T>> tasks = new ArrayList<>(suppliers);
+        final int count = tasks.size();
+        // each supplier is claimed once, either by its task starting or by cancellation preventing it from starting
+        final AtomicIntegerArray claimed = new AtomicIntegerArray(count);
+        final CountDownLatch settled = new CountDownLatch(count);
+        CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        List<Future<T>> futures = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                final int index = i;
+                futures.add(completion.submit(() -> {
+                    if (!claimed.compareAndSet(index, 0, 1)) throw new CancellationException();
+                    try { return tasks.get(index).get(); }
+                    catch (Exception | Error e) { throw e; }
+                    catch (Throwable t) { throw new ForkedThrowable(t); }
+                    finally { settled.countDown(); }
+                }));
+            }
+            for (int i = 0; i < count; i++) {
+                Future<T> done;
+                try { done = completion.take(); }
+                catch (InterruptedException e) {
+                    // only the joining thread's own interruption is restored, a supplier's is passed through as is
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                try { done.get(); }
+                catch (ExecutionException e) {
+                    throw e.getCause() instanceof ForkedThrowable ? e.getCause().getCause() : e.getCause();
+                }
+            }
+            List<T> results = new ArrayList<>(count);
+            for (Future<T> future : futures) results.add(future.get());
+            return results;
+        }
+        finally {
+            for (int i = 0; i < count; i++) {
+                if (claimed.compareAndSet(i, 0, 1)) settled.countDown();
+                if (i < futures.size()) futures.get(i).cancel(true);
+            }
+            awaitUninterruptibly(settled);
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            }
+            catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /** Carries a non-Exception, non-Error throwable out of a forked Callable */
+    private static class ForkedThrowable extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        ForkedThrowable(Throwable cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * Returns an empty exception {@link Translator}, handlers can be registered by exception type to build up a
+     * checked -> unchecked exception transformer usable anywhere a transformer is accepted.
+     * For example:
+     * <pre>{@code
+     *   Translator translator = Unchecker.translator()
+     *       .on(IOException.class, UncheckedIOException::new)
+     *       .on(SQLException.class, DataAccessException::new);
+     *
+     *   unchecked(() -> readAndStore(file), translator);
+     * }</pre>
+     * @return translator with no registered handlers, wrapping all checked exceptions in {@link RuntimeException}s
+     */
+    public static Translator translator() {
+        return Translator.EMPTY;
+    }
+
+    /**
+     * Immutable checked -> unchecked exception transformer that dispatches to handlers registered by exception type.
+     * The handler of the most specific registered superclass of a thrown exception is used, falling back to the
+     * {@link #otherwise(java.util.function.Function) otherwise} transformer when no registered type matches.
+     * Handler resolution is cached per concrete exception class, so translation costs a single lookup
+     * however many handlers are registered
+     */
+    public static final class Translator implements Function<Throwable, RuntimeException> {
+
+        private static final Translator EMPTY = new Translator(emptyMap(), DEFAULT_EXCEPTION_TRANSFORMER);
+
+        private final Map<Class<?>, Function<Throwable, ? extends RuntimeException>> handlers;
+        private final Function<Throwable, ? extends RuntimeException> fallback;
+        private final ClassValue<Function<Throwable, ? extends RuntimeException>> resolved =
+            new ClassValue<Function<Throwable, ? extends RuntimeException>>() {
+                @Override
+                protected Function<Throwable, ? extends RuntimeException> computeValue(Class<?> type) {
+                    return resolve(type);
+                }
+            };
+
+        private Translator(Map<Class<?>, Function<Throwable, ? extends RuntimeException>> handlers,
+                           Function<Throwable, ? extends RuntimeException> fallback) {
+            this.handlers = handlers;
+            this.fallback = fallback;
+        }
+
+        /**
+         * Returns a translator that also handles exceptions of the input type, and its subclasses, with the input
+         * handler. Replaces any handler previously registered for exactly the same type
+         * @param type exception type to handle
+         * @param handler type -> unchecked exception transformer
+         * @param <E> handled exception type
+         * @return new translator including the handler
+         */
+        @SuppressWarnings("unchecked")
+        public <E extends Throwable> Translator on(Class<E> type, Function<? super E, ? extends RuntimeException> handler) {
+            if (type == null || handler == null) throw new NullPointerException();
+            Map<Class<?>, Function<Throwable, ? extends RuntimeException>> copy = new LinkedHashMap<>(handlers);
+            copy.put(type, (Function<Throwable, ? extends RuntimeException>) handler);
+            return new Translator(copy, fallback);
+        }
+
+        /**
+         * Returns a translator that uses the input transformer for exceptions matching no registered type,
+         * by default these are wrapped in {@link RuntimeException}s
+         * @param fallback checked -> unchecked exception transformer
+         * @return new translator using the fallback
+         */
+        public Translator otherwise(Function<Throwable, ? extends RuntimeException> fallback) {
+            if (fallback == null) throw new NullPointerException();
+            return new Translator(handlers, fallback);
+        }
+
+        @Override
+        public RuntimeException apply(Throwable throwable) {
+            return resolved.get(throwable.getClass()).apply(throwable);
+        }
+
+        private Function<Throwable, ? extends RuntimeException> resolve(Class<?> type) {
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                Function<Throwable, ? extends RuntimeException> handler = handlers.get(c);
+                if (handler != null) return handler;
+            }
+            return fallback;
+        }
+    }
+
     /**
      * Represents a supplier of results, that could throw a checked exception
      * @see java.util.function.Supplier
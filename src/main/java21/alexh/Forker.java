@@ -0,0 +1,35 @@
+/*
+ * Copyright 2015 Alex Butler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package alexh;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs {@link Unchecker#uncheckedForkAll(List, java.util.function.Function)} work with a virtual thread per supplier,
+ * using a new executor per call that is closed before returning
+ */
+final class Forker {
+
+    static <T> List<T> forkAll(List<? extends Unchecker.ThrowingSupplier<? extends T>> suppliers) throws Throwable {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            return Unchecker.joinAll(executor, suppliers);
+        }
+    }
+
+    private Forker() {}
+}
@@ -52,6 +52,227 @@ public class FluentMapTest {
         assertThat(immutable).hasSize(3);
     }
 
+    @Test
+    public void strategyHashMap_byteArrayKeys() {
+        Map<byte[], String> map = new Fluent.StrategyHashMap<byte[], String>(Fluent.HashingStrategy.byteArray())
+            .append(new byte[]{ 1, 2, 3 }, "a")
+            .append(new byte[]{ 4, 5 }, "b")
+            .append(new byte[]{ 1, 2, 3 }, "c");
+
+        assertThat(map).hasSize(2);
+        assertThat(map.get(new byte[]{ 1, 2, 3 })).isEqualTo("c");
+        assertThat(map.containsKey(new byte[]{ 4, 5 })).isTrue();
+        assertThat(map.remove(new byte[]{ 4, 5 })).isEqualTo("b");
+        assertThat(map.containsKey(new byte[]{ 4, 5 })).isFalse();
+        assertThat(map).hasSize(1);
+    }
+
+    @Test
+    public void strategyHashMap_byteArrayRangeLookup() {
+        Fluent.StrategyHashMap<byte[], String> map = new Fluent.StrategyHashMap<>(Fluent.HashingStrategy.byteArray());
+        map.append(new byte[]{ 1, 2, 3 }, "a")
+            .append(new byte[]{ 2, 3 }, "b")
+            .append(new byte[0], "empty");
+
+        byte[] buf = { 9, 1, 2, 3, 9 };
+        assertThat(map.get(buf, 1, 3)).isEqualTo("a");
+        assertThat(map.get(buf, 2, 2)).isEqualTo("b");
+        assertThat(map.get(buf, 0, 0)).isEqualTo("empty");
+        assertThat(map.get(buf, 0, 3)).isNull();
+        assertThat(map.get(buf, 1, 4)).isNull();
+
+        assertThatThrownBy(() -> map.get(buf, 3, 3)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> new Fluent.StrategyHashMap<byte[], String>(
+            Fluent.HashingStrategy.of(Arrays::hashCode, Arrays::equals)).get(buf, 1, 3))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void strategyHashMap_caseInsensitiveKeys() {
+        Map<String, Integer> map = new Fluent.StrategyHashMap<String, Integer>(Fluent.HashingStrategy.caseInsensitive())
+            .append("Content-Length", 123)
+            .append("content-TYPE", 456)
+            .append("CONTENT-LENGTH", 789);
+
+        assertThat(map).hasSize(2);
+        assertThat(map.get("content-length")).isEqualTo(789);
+        assertThat(map.get("Content-Type")).isEqualTo(456);
+        assertThat(map.get("Content-Encoding")).isNull();
+    }
+
+    @Test
+    public void strategyHashMap_caseInsensitiveSupplementaryKeys() {
+        Fluent.HashingStrategy<String> strategy = Fluent.HashingStrategy.caseInsensitive();
+        String upper = "x\uD801\uDC00"; // DESERET CAPITAL LONG I
+        String lower = "X\uD801\uDC28"; // DESERET SMALL LONG I
+        Map<String, Integer> map = new Fluent.StrategyHashMap<String, Integer>(strategy).append(upper, 1);
+
+        // equalsIgnoreCase folds by code point since java 16, per char before
+        if (upper.equalsIgnoreCase(lower)) {
+            assertThat(strategy.hash(lower)).isEqualTo(strategy.hash(upper));
+            assertThat(map.get(lower)).isEqualTo(1);
+        }
+        else assertThat(map.get(lower)).isNull();
+        assertThat(map.get("X\uD801\uDC00")).isEqualTo(1);
+    }
+
+    @Test
+    public void strategyHashMap_behavesAsHashMap() {
+        Map<String, Integer> expected = new HashMap<>();
+        Fluent.StrategyHashMap<String, Integer> map =
+            new Fluent.StrategyHashMap<>(Fluent.HashingStrategy.<String>of(String::hashCode, String::equals));
+
+        for (int i = 0; i < 1000; i++) {
+            expected.put("key" + i, i);
+            map.put("key" + i, i);
+        }
+        for (int i = 0; i < 1000; i += 3) {
+            assertThat(map.remove("key" + i)).isEqualTo(expected.remove("key" + i));
+        }
+        expected.entrySet().removeIf(entry -> entry.getValue() % 5 == 0);
+        map.entrySet().removeIf(entry -> entry.getValue() % 5 == 0);
+        for (int i = 0; i < 500; i++) {
+            expected.put("key" + i, -i);
+            map.put("key" + i, -i);
+        }
+
+        assertThat(map).isEqualTo(expected);
+        assertThat(map).hasSize(expected.size());
+    }
+
+    @Test
+    public void stringTableMap_usage() {
+        Map<String, String> table = new Fluent.StringTableMap()
+            .append("greeting", "hello")
+            .append("caf\u00E9", "na\u00EFve")
+            .append("emoji \uD83D\uDE00", "unpaired \uDC00 surrogate")
+            .append("greeting", "hi");
+
+        assertThat(table).hasSize(3);
+        assertThat(table.get("greeting")).isEqualTo("hi");
+        assertThat(table.get("caf\u00E9")).isEqualTo("na\u00EFve");
+        assertThat(table.get("emoji \uD83D\uDE00")).isEqualTo("unpaired \uDC00 surrogate");
+        assertThat(table.get("cafe")).isNull();
+        assertThat(table.remove("caf\u00E9")).isEqualTo("na\u00EFve");
+        assertThat(table.containsKey("caf\u00E9")).isFalse();
+        assertThat(table).hasSize(2);
+    }
+
+    @Test
+    public void stringTableMap_compactsDuringIteration() {
+        Fluent.StringTableMap table = new Fluent.StringTableMap();
+        Map<String, String> expected = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            table.put("key" + i, "a long enough value to make garbage " + i);
+        }
+
+        // removing most entries compacts the arena part way through iteration
+        Set<String> visited = new HashSet<>();
+        for (Iterator<Map.Entry<String, String>> it = table.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, String> entry = it.next();
+            assertThat(visited.add(entry.getKey())).isTrue();
+            assertThat(entry.getValue()).isEqualTo("a long enough value to make garbage " + entry.getKey().substring(3));
+            if (entry.getKey().hashCode() % 5 != 0) it.remove();
+            else expected.put(entry.getKey(), entry.getValue());
+        }
+
+        assertThat(visited).hasSize(200);
+        assertThat(table).isEqualTo(expected);
+    }
+
+    @Test
+    public void stringTableMap_entrySetValueWritesThrough() {
+        Fluent.StringTableMap table = new Fluent.StringTableMap();
+        table.append("one", "1").append("two", "2");
+
+        for (Map.Entry<String, String> entry : table.entrySet()) {
+            assertThat(entry.setValue(entry.getValue() + "!")).isEqualTo(entry.getKey().equals("one") ? "1" : "2");
+        }
+
+        assertThat(table.get("one")).isEqualTo("1!");
+        assertThat(table.get("two")).isEqualTo("2!");
+        assertThatThrownBy(() -> table.entrySet().iterator().next().setValue(null))
+            .isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    public void stringTableMap_entryValueSurvivesRemoval() {
+        Fluent.StringTableMap table = new Fluent.StringTableMap();
+        table.append("one", "1").append("two", "2");
+
+        Iterator<Map.Entry<String, String>> iterator = table.entrySet().iterator();
+        Map.Entry<String, String> first = iterator.next();
+        iterator.remove();
+        Map.Entry<String, String> second = iterator.next();
+        table.remove(second.getKey());
+
+        assertThat(first.getValue()).isEqualTo(first.getKey().equals("one") ? "1" : "2");
+        assertThat(second.getValue()).isNull();
+        assertThat(table).isEmpty();
+    }
+
+    @Test
+    public void stringTableMap_keySetAndValuesViews() {
+        Fluent.StringTableMap table = new Fluent.StringTableMap();
+        for (int i = 0; i < 100; i++) table.put("key" + i, "value" + i);
+
+        Set<String> keys = table.keySet();
+        assertThat(keys.contains("key7")).isTrue();
+        assertThat(keys.contains("key100")).isFalse();
+        assertThat(keys.remove("key7")).isTrue();
+        assertThat(keys.remove("key7")).isFalse();
+        assertThat(table.containsKey("key7")).isFalse();
+
+        for (Iterator<String> it = keys.iterator(); it.hasNext(); ) {
+            if (!it.next().endsWith("3")) it.remove();
+        }
+        assertThat(table).containsOnlyKeys("key3", "key13", "key23", "key33", "key43", "key53", "key63", "key73",
+            "key83", "key93");
+
+        Collection<String> values = table.values();
+        assertThat(values).hasSize(10);
+        assertThat(values.contains("value43")).isTrue();
+        assertThat(values.remove("value43")).isTrue();
+        assertThat(table.containsKey("key43")).isFalse();
+        assertThat(new TreeSet<>(values).first()).isEqualTo("value13");
+
+        values.clear();
+        assertThat(table).isEmpty();
+        assertThat(keys).isEmpty();
+    }
+
+    @Test
+    public void stringTableMap_reusableAfterClear() {
+        Fluent.StringTableMap table = new Fluent.StringTableMap();
+        for (int i = 0; i < 100; i++) table.put("key" + i, "value" + i);
+
+        table.clear();
+        assertThat(table).isEmpty();
+        assertThat(table.get("key1")).isNull();
+
+        table.append("key1", "new").append("other", "value");
+        assertThat(table).hasSize(2);
+        assertThat(table.get("key1")).isEqualTo("new");
+        assertThat(table.get("other")).isEqualTo("value");
+    }
+
+    @Test
+    public void stringTableMap_unmodifiableOfEmptiedMap() {
+        Fluent.StringTableMap table = new Fluent.StringTableMap();
+        table.append("one", "1").append("two", "2");
+        table.remove("one");
+        table.remove("two");
+
+        Map<String, String> unmodifiable = table.unmodifiable();
+        assertThat(unmodifiable).isEmpty();
+        assertThatThrownBy(() -> unmodifiable.put("three", "3")).isInstanceOf(UnsupportedOperationException.class);
+
+        // the trimmed arena grows again for the backing map
+        table.put("three", "3");
+        assertThat(unmodifiable).hasSize(1);
+        assertThat(unmodifiable.get("three")).isEqualTo("3");
+    }
+
     enum Inner {
         KEY1, KEY2, KEY3
     }
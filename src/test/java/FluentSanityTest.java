@@ -26,6 +26,9 @@ public class FluentSanityTest {
         testFluentMap().withFluent(Fluent.IdentityHashMap::new).withExpectedSuperclass(java.util.IdentityHashMap.class).run();
         testFluentMap().withFluent(Fluent.ConcurrentHashMap::new).withExpectedSuperclass(java.util.concurrent.ConcurrentHashMap.class).run();
         testFluentMap().withFluent(Fluent.ConcurrentSkipListMap::new).withExpectedSuperclass(java.util.concurrent.ConcurrentSkipListMap.class).run();
+        testFluentMap().withFluent(() -> new Fluent.StrategyHashMap<>(Fluent.HashingStrategy.caseInsensitive()))
+            .withExpectedSuperclass(java.util.AbstractMap.class).run();
+        testFluentMap().withFluent(Fluent.StringTableMap::new).withExpectedSuperclass(java.util.AbstractMap.class).run();
     }
 
     enum Example {
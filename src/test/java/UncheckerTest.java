@@ -1,13 +1,25 @@
 import org.junit.Test;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static alexh.Unchecker.*;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 
 public class UncheckerTest {
 
@@ -185,6 +197,141 @@ public class UncheckerTest {
         unchecked(ThrowingUtility::throwSomething);
     }
 
+    @Test(expected = UncheckedIOException.class)
+    public void uncheckWithTranslator() {
+        unchecked(() -> {
+            throw new IOException("IO error!");
+        }, translator()
+            .on(IOException.class, UncheckedIOException::new)
+            .on(SQLException.class, IllegalStateException::new));
+    }
+
+    @Test
+    public void translatorUsesMostSpecificHandler() {
+        Translator translator = translator()
+            .on(Exception.class, IllegalStateException::new)
+            .on(IOException.class, UncheckedIOException::new)
+            .on(FileNotFoundException.class, e -> new IllegalArgumentException(e.getMessage()));
+
+        assertThat(translator.apply(new FileNotFoundException("missing")), instanceOf(IllegalArgumentException.class));
+        assertThat(translator.apply(new IOException()), instanceOf(UncheckedIOException.class));
+        assertThat(translator.apply(new SQLException()), instanceOf(IllegalStateException.class));
+        assertThat(translator.apply(new Throwable()).getClass(), is((Object) RuntimeException.class));
+    }
+
+    @Test
+    public void translatorOtherwise() {
+        Throwable throwable = new Throwable("unhandled");
+        RuntimeException translated = translator()
+            .on(IOException.class, UncheckedIOException::new)
+            .otherwise(IllegalStateException::new)
+            .apply(throwable);
+
+        assertThat(translated, instanceOf(IllegalStateException.class));
+        assertThat(translated.getCause(), is(sameInstance(throwable)));
+    }
+
+    @Test
+    public void translatorOnIsImmutable() {
+        Translator base = translator().on(IOException.class, UncheckedIOException::new);
+        base.on(IOException.class, IllegalStateException::new);
+
+        assertThat(base.apply(new IOException()), instanceOf(UncheckedIOException.class));
+    }
+
+    @Test
+    public void uncheckedForkAll_works() {
+        List<String> results = uncheckedForkAll(() -> {
+            Thread.sleep(20);
+            return "a";
+        }, () -> "b", () -> "c");
+
+        assertThat(results, is(Arrays.asList("a", "b", "c")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void uncheckedForkAll_throws() {
+        uncheckedForkAll(Arrays.<ThrowingSupplier<String>>asList(
+            () -> "a",
+            () -> {
+                throw new IOException("IO error");
+            }), IllegalArgumentException::new);
+    }
+
+    @Test
+    public void uncheckedForkAll_cancelsOnFailure() {
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger interrupted = new AtomicInteger();
+        try {
+            uncheckedForkAll(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(10_000);
+                }
+                catch (InterruptedException e) {
+                    interrupted.incrementAndGet();
+                    throw e;
+                }
+                return "slow";
+            }, () -> {
+                started.await();
+                throw new Throwable("fail");
+            });
+            fail("expected failure");
+        }
+        catch (RuntimeException e) {
+            assertThat(e.getCause().getMessage(), is("fail"));
+        }
+        assertThat(interrupted.get(), is(1));
+    }
+
+    @Test
+    public void uncheckedForkAll_waitsForCancelledSuppliers() {
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean finished = new AtomicBoolean();
+        try {
+            uncheckedForkAll(() -> {
+                started.countDown();
+                long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+                while (System.nanoTime() < end) Thread.yield(); // ignores interrupts
+                finished.set(true);
+                return "stubborn";
+            }, () -> {
+                started.await();
+                throw new Throwable("fail");
+            });
+            fail("expected failure");
+        }
+        catch (RuntimeException e) {
+            assertThat(finished.get(), is(true));
+        }
+    }
+
+    @Test
+    public void uncheckedForkAll_supplierInterruptionLeavesCallerUninterrupted() {
+        try {
+            uncheckedForkAll(() -> "a", () -> {
+                throw new InterruptedException("supplier interrupted");
+            });
+            fail("expected failure");
+        }
+        catch (RuntimeException e) {
+            assertThat(e.getCause(), instanceOf(InterruptedException.class));
+        }
+        assertThat(Thread.interrupted(), is(false));
+    }
+
+    /** Run by the java21 profile against the packaged multi-release jar */
+    @Test
+    public void uncheckedForkAll_usesVirtualThreadsFromMultiReleaseJar() throws Exception {
+        assumeTrue(Boolean.getBoolean("fluent.test.multiReleaseJar"));
+        Method isVirtual = Thread.class.getMethod("isVirtual");
+
+        List<Object> virtual = uncheckedForkAll(() -> isVirtual.invoke(Thread.currentThread()));
+
+        assertThat(virtual, is(Arrays.<Object>asList(true)));
+    }
+
     static class ThrowingUtility {
 
         static String throwSomethingNeverReturn() throws Throwable {